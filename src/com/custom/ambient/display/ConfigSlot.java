@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2026 The BlissRoms Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.custom.ambient.display;
+
+// Hands a detector config from the thread that read the settings to the sensor
+// callbacks. Configs are immutable with final fields, so through the volatile
+// reference a reader gets either the old or the new instance in full.
+final class ConfigSlot<T> {
+
+    private volatile T mConfig;
+
+    ConfigSlot(T initial) {
+        mConfig = initial;
+    }
+
+    void publish(T config) {
+        mConfig = config;
+    }
+
+    T read() {
+        return mConfig;
+    }
+}
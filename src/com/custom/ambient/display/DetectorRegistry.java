@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2026 The BlissRoms Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.custom.ambient.display;
+
+import android.content.Context;
+import android.provider.Settings;
+
+public final class DetectorRegistry {
+
+    protected interface Factory {
+        DozeDetector create(DozeService service);
+    }
+
+    protected static final class Entry {
+        protected final String name;
+        protected final SensorCatalog.Role sensorRole;
+        protected final String[] settings;
+        private final Factory mFactory;
+
+        private Entry(String name, SensorCatalog.Role sensorRole, String[] settings,
+                Factory factory) {
+            this.name = name;
+            this.sensorRole = sensorRole;
+            this.settings = settings;
+            mFactory = factory;
+        }
+
+        // Any of the gestures served by this detector is switched on
+        protected boolean isEnabled(Context context) {
+            for (String setting : settings) {
+                if (Settings.System.getInt(context.getContentResolver(), setting, 0) != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        protected boolean isAvailable(SensorCatalog catalog) {
+            return catalog.getSensor(sensorRole) != null;
+        }
+
+        protected DozeDetector create(DozeService service) {
+            return mFactory.create(service);
+        }
+    }
+
+    protected static final Entry[] ENTRIES = {
+        new Entry("tilt", SensorCatalog.TILT,
+                new String[] {
+                    Settings.System.CUSTOM_AMBIENT_TILT_GESTURE,
+                    Settings.System.CUSTOM_RAISE_TO_WAKE_GESTURE,
+                },
+                service -> new TiltSensor(service, service.getPulseBackoff(),
+                        service.getSensorWatchdog(), service.getSensorCatalog(),
+                        service.getStateSnapshot())),
+        new Entry("proximity", SensorCatalog.PROXIMITY,
+                new String[] {
+                    Settings.System.CUSTOM_AMBIENT_HANDWAVE_GESTURE,
+                    Settings.System.CUSTOM_AMBIENT_POCKETMODE_GESTURE,
+                },
+                service -> new ProximitySensor(service, service.getPulseBackoff(),
+                        service.getSensorWatchdog(), service.getSensorCatalog(),
+                        service.getStateSnapshot())),
+    };
+
+    private DetectorRegistry() {
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2026 The BlissRoms Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.custom.ambient.display;
+
+import android.content.SharedPreferences;
+
+import java.io.PrintWriter;
+
+public interface DozeDetector {
+
+    // Switching screen OFF - arm the sensors
+    void enable();
+
+    // Switching screen ON - disarm the sensors
+    void disable();
+
+    // The gesture was turned off, release everything the detector holds
+    void destroy();
+
+    // Warm restart support, see StateSnapshot
+    void saveState(SharedPreferences.Editor editor);
+
+    void restoreState(SharedPreferences prefs);
+
+    void dump(PrintWriter pw);
+}
@@ -21,25 +21,79 @@ import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
 import android.content.IntentFilter;
+import android.content.SharedPreferences;
+import android.database.ContentObserver;
+import android.hardware.SensorManager;
+import android.os.Debug;
+import android.os.Handler;
 import android.os.IBinder;
+import android.os.Looper;
+import android.os.PowerManager;
+import android.os.SystemClock;
+import android.provider.Settings;
+import android.util.ArrayMap;
+import android.util.ArraySet;
 import android.util.Log;
 
+import java.io.FileDescriptor;
+import java.io.PrintWriter;
+
 public class DozeService extends Service {
     private static final String TAG = "DozeService";
     private static final boolean DEBUG = false;
 
-    private ProximitySensor mProximitySensor;
-    private TiltSensor mTiltSensor;
+    private final ArrayMap<String, DozeDetector> mDetectors = new ArrayMap<>();
+    private final ArraySet<String> mArmedDetectors = new ArraySet<>();
+    private PulseBackoff mPulseBackoff;
+    private SensorWatchdog mSensorWatchdog;
+    private SensorCatalog mSensorCatalog;
+    private QuietHours mQuietHours;
+    private StateSnapshot mStateSnapshot;
+    private SharedPreferences mSavedState;
+    private boolean mDisplayOff;
+    private boolean mWarmStart;
+    private StartupTracker mStartupTracker;
+    private long mStartupMs;
 
     @Override
     public void onCreate() {
         if (DEBUG) Log.d(TAG, "Creating service");
-        mProximitySensor = new ProximitySensor(this);
-        mTiltSensor = new TiltSensor(this);
+        final long start = SystemClock.elapsedRealtime();
+        mStartupTracker = new StartupTracker(SystemClock::elapsedRealtime);
+        mStateSnapshot = new StateSnapshot(this, this::writeState);
+        mSavedState = mStateSnapshot.getSavedState();
+        mWarmStart = mSavedState != null;
+        mPulseBackoff = new PulseBackoff(mStateSnapshot::markDirty,
+                SystemClock::elapsedRealtime);
+        if (mWarmStart) {
+            mPulseBackoff.restoreState(mSavedState);
+        }
+        mSensorWatchdog = new SensorWatchdog(getSystemService(SensorManager.class),
+                mStartupTracker::onRegistered);
+        mSensorCatalog = new SensorCatalog(this);
+        mQuietHours = new QuietHours(this, this::updateArming);
+        mDisplayOff = !getSystemService(PowerManager.class).isInteractive();
+
+        for (DetectorRegistry.Entry entry : DetectorRegistry.ENTRIES) {
+            for (String setting : entry.settings) {
+                registerSettingsObserver(setting);
+            }
+        }
+        registerSettingsObserver(Utils.QUIET_HOURS_SETTING);
+        registerSettingsObserver(Utils.QUIET_HOURS_START_SETTING);
+        registerSettingsObserver(Utils.QUIET_HOURS_END_SETTING);
+        registerSettingsObserver(Utils.QUIET_HOURS_EXEMPT_SETTING);
+        mQuietHours.start();
+        updateDetectors();
+        // Only detectors created right now continue where the killed instance left off
+        mSavedState = null;
 
         IntentFilter screenStateFilter = new IntentFilter(Intent.ACTION_SCREEN_ON);
         screenStateFilter.addAction(Intent.ACTION_SCREEN_OFF);
+        screenStateFilter.addAction(Intent.ACTION_USER_PRESENT);
         registerReceiver(mScreenStateReceiver, screenStateFilter);
+        mStartupTracker.onCreated(!mArmedDetectors.isEmpty());
+        mStartupMs = SystemClock.elapsedRealtime() - start;
     }
 
     @Override
@@ -53,8 +107,14 @@ public class DozeService extends Service {
         if (DEBUG) Log.d(TAG, "Destroying service");
         super.onDestroy();
         this.unregisterReceiver(mScreenStateReceiver);
-        mProximitySensor.disable();
-        mTiltSensor.disable();
+        getContentResolver().unregisterContentObserver(mSettingsObserver);
+        mQuietHours.stop();
+        for (DozeDetector detector : mDetectors.values()) {
+            detector.destroy();
+        }
+        mDetectors.clear();
+        mArmedDetectors.clear();
+        mStateSnapshot.clear();
     }
 
     @Override
@@ -62,18 +122,118 @@ public class DozeService extends Service {
         return null;
     }
 
+    @Override
+    protected void dump(FileDescriptor fd, PrintWriter pw, String[] args) {
+        Debug.MemoryInfo memoryInfo = new Debug.MemoryInfo();
+        Debug.getMemoryInfo(memoryInfo);
+        Runtime runtime = Runtime.getRuntime();
+        pw.println("DozeService:");
+        pw.println("  pssKb=" + memoryInfo.getTotalPss()
+                + " heapUsedKb=" + (runtime.totalMemory() - runtime.freeMemory()) / 1024);
+        pw.println("  warmStart=" + mWarmStart + " startupMs=" + mStartupMs
+                + " startupToArmedMs=" + mStartupTracker.getStartupToArmedMs());
+        pw.println("  detectors=" + mDetectors.keySet() + " armed=" + mArmedDetectors);
+        for (DozeDetector detector : mDetectors.values()) {
+            detector.dump(pw);
+        }
+        mPulseBackoff.dump(pw);
+        mQuietHours.dump(pw);
+        mSensorCatalog.dump(pw);
+        mSensorWatchdog.dump(pw);
+    }
+
+    protected PulseBackoff getPulseBackoff() {
+        return mPulseBackoff;
+    }
+
+    protected SensorWatchdog getSensorWatchdog() {
+        return mSensorWatchdog;
+    }
+
+    protected SensorCatalog getSensorCatalog() {
+        return mSensorCatalog;
+    }
+
+    protected StateSnapshot getStateSnapshot() {
+        return mStateSnapshot;
+    }
+
+    private void writeState(SharedPreferences.Editor editor) {
+        for (DozeDetector detector : mDetectors.values()) {
+            detector.saveState(editor);
+        }
+        mPulseBackoff.saveState(editor);
+    }
+
+    // Instantiate the detectors whose gestures got enabled, tear down the others
+    private void updateDetectors() {
+        for (DetectorRegistry.Entry entry : DetectorRegistry.ENTRIES) {
+            DozeDetector detector = mDetectors.get(entry.name);
+            if (entry.isEnabled(this)) {
+                if (detector == null && entry.isAvailable(mSensorCatalog)) {
+                    if (DEBUG) Log.d(TAG, "Creating detector " + entry.name);
+                    detector = entry.create(this);
+                    if (mSavedState != null) {
+                        detector.restoreState(mSavedState);
+                    }
+                    mDetectors.put(entry.name, detector);
+                }
+            } else if (detector != null) {
+                if (DEBUG) Log.d(TAG, "Destroying detector " + entry.name);
+                detector.destroy();
+                mDetectors.remove(entry.name);
+                mArmedDetectors.remove(entry.name);
+            }
+        }
+        updateArming();
+    }
+
+    // Detectors are armed while the display is off, unless quiet hours hold them
+    private void updateArming() {
+        boolean held = false;
+        for (int i = 0; i < mDetectors.size(); i++) {
+            String name = mDetectors.keyAt(i);
+            boolean quiet = mQuietHours.isQuiet(name);
+            boolean arm = mDisplayOff && !quiet;
+            held |= mDisplayOff && quiet;
+            if (arm && mArmedDetectors.add(name)) {
+                mStartupTracker.onArmingChanged();
+                mDetectors.valueAt(i).enable();
+            } else if (!arm && mArmedDetectors.remove(name)) {
+                mStartupTracker.onArmingChanged();
+                mDetectors.valueAt(i).disable();
+            }
+        }
+        mQuietHours.setHoldingDetectors(held);
+    }
+
+    private void registerSettingsObserver(String setting) {
+        getContentResolver().registerContentObserver(
+                Settings.System.getUriFor(setting), false, mSettingsObserver);
+    }
+
     private void onDisplayOn() {
         if (DEBUG) Log.d(TAG, "Display on");
-        mTiltSensor.disable();
-        mProximitySensor.disable();
+        mDisplayOff = false;
+        mPulseBackoff.onUserEngaged();
+        updateArming();
     }
 
     private void onDisplayOff() {
         if (DEBUG) Log.d(TAG, "Display off");
-        mTiltSensor.enable();
-        mProximitySensor.enable();
+        mDisplayOff = true;
+        updateArming();
     }
 
+    private final ContentObserver mSettingsObserver =
+            new ContentObserver(new Handler(Looper.getMainLooper())) {
+        @Override
+        public void onChange(boolean selfChange) {
+            mQuietHours.update();
+            updateDetectors();
+        }
+    };
+
     private BroadcastReceiver mScreenStateReceiver = new BroadcastReceiver() {
         @Override
         public void onReceive(Context context, Intent intent) {
@@ -81,6 +241,8 @@ public class DozeService extends Service {
                 onDisplayOn();
             } else if (intent.getAction().equals(Intent.ACTION_SCREEN_OFF)) {
                 onDisplayOff();
+            } else if (intent.getAction().equals(Intent.ACTION_USER_PRESENT)) {
+                mPulseBackoff.onUserEngaged();
             }
         }
     };
@@ -22,6 +22,8 @@ import android.content.Context;
 import android.os.Bundle;
 import android.preference.PreferenceActivity;
 import android.provider.Settings;
+import androidx.preference.ListPreference;
+import androidx.preference.MultiSelectListPreference;
 import androidx.preference.PreferenceCategory;
 import androidx.preference.Preference;
 import androidx.preference.SwitchPreference;
@@ -31,6 +33,8 @@ import android.view.MenuItem;
 import com.bliss.support.preferences.SystemSettingSeekBarPreference;
 import com.bliss.support.preferences.SystemSettingSwitchPreference;
 
+import java.util.Set;
+
 public class DozeSettings extends PreferenceActivity implements PreferenceFragment.OnPreferenceStartFragmentCallback {
 
     @Override
@@ -75,12 +79,17 @@ public class DozeSettings extends PreferenceActivity implements PreferenceFragme
         private SwitchPreference mAmbientDisplayPreference;
         private SwitchPreference mPickUpPreference;
         private SwitchPreference mRaiseToWakePreference;
+        private SwitchPreference mPickUpConfirmPreference;
         private SwitchPreference mHandwavePreference;
         private SwitchPreference mPocketPreference;
         private SystemSettingSwitchPreference mDoubleTapPreference;
         private SystemSettingSwitchPreference mMusicTickerPreference;
         private SystemSettingSeekBarPreference mDozeBrightness;
         private SystemSettingSeekBarPreference mPulseBrightness;
+        private SwitchPreference mQuietHoursPreference;
+        private ListPreference mQuietHoursStartPreference;
+        private ListPreference mQuietHoursEndPreference;
+        private MultiSelectListPreference mQuietHoursExemptPreference;
 
         @Override
         public void onCreatePreferences(Bundle savedInstanceState, String rootKey) {
@@ -128,6 +137,11 @@ public class DozeSettings extends PreferenceActivity implements PreferenceFragme
             mRaiseToWakePreference.setChecked(Utils.raiseToWakeGestureEnabled(mContext));
             mRaiseToWakePreference.setOnPreferenceChangeListener(this);
 
+            mPickUpConfirmPreference =
+                (SwitchPreference) findPreference(Utils.PICK_UP_CONFIRM_KEY);
+            mPickUpConfirmPreference.setChecked(Utils.pickUpConfirmEnabled(mContext));
+            mPickUpConfirmPreference.setOnPreferenceChangeListener(this);
+
             mHandwavePreference =
                 (SwitchPreference) findPreference(Utils.GESTURE_HAND_WAVE_KEY);
             mHandwavePreference.setChecked(Utils.handwaveGestureEnabled(mContext));
@@ -158,11 +172,34 @@ public class DozeSettings extends PreferenceActivity implements PreferenceFragme
             mDozeBrightness.setValue(value);
             mDozeBrightness.setOnPreferenceChangeListener(this);
 
+            mQuietHoursPreference =
+                (SwitchPreference) findPreference(Utils.QUIET_HOURS_KEY);
+            mQuietHoursPreference.setChecked(Utils.quietHoursEnabled(mContext));
+            mQuietHoursPreference.setOnPreferenceChangeListener(this);
+
+            mQuietHoursStartPreference =
+                (ListPreference) findPreference(Utils.QUIET_HOURS_START_KEY);
+            mQuietHoursStartPreference.setValue(
+                    String.valueOf(Utils.quietHoursStart(mContext)));
+            mQuietHoursStartPreference.setOnPreferenceChangeListener(this);
+
+            mQuietHoursEndPreference =
+                (ListPreference) findPreference(Utils.QUIET_HOURS_END_KEY);
+            mQuietHoursEndPreference.setValue(
+                    String.valueOf(Utils.quietHoursEnd(mContext)));
+            mQuietHoursEndPreference.setOnPreferenceChangeListener(this);
+
+            mQuietHoursExemptPreference =
+                (MultiSelectListPreference) findPreference(Utils.QUIET_HOURS_EXEMPT_KEY);
+            mQuietHoursExemptPreference.setValues(Utils.quietHoursExempt(mContext));
+            mQuietHoursExemptPreference.setOnPreferenceChangeListener(this);
+
             mTiltCategory = (PreferenceCategory) findPreference(KEY_CATEGORY_TILT_SENSOR);
             if (!getResources().getBoolean(R.bool.has_tilt_sensor)) {
                 getPreferenceScreen().removePreference(mTiltCategory);
                 getPreferenceScreen().removePreference(mPickUpPreference);
                 getPreferenceScreen().removePreference(mRaiseToWakePreference);
+                getPreferenceScreen().removePreference(mPickUpConfirmPreference);
             }
 
             mProximitySensorCategory =
@@ -208,6 +245,11 @@ public class DozeSettings extends PreferenceActivity implements PreferenceFragme
                 mRaiseToWakePreference.setChecked(value);
                 Utils.enableRaiseToWake(value, mContext);
                 return true;
+            } else if (Utils.PICK_UP_CONFIRM_KEY.equals(key)) {
+                boolean value = (Boolean) newValue;
+                mPickUpConfirmPreference.setChecked(value);
+                Utils.enablePickUpConfirm(value, mContext);
+                return true;
             } else if (Utils.GESTURE_HAND_WAVE_KEY.equals(key)) {
                 boolean value = (Boolean) newValue;
                 mHandwavePreference.setChecked(value);
@@ -225,6 +267,22 @@ public class DozeSettings extends PreferenceActivity implements PreferenceFragme
                             Settings.Secure.DOUBLE_TAP_TO_WAKE, 1);
                 }
                 return true;
+            } else if (Utils.QUIET_HOURS_KEY.equals(key)) {
+                boolean value = (Boolean) newValue;
+                mQuietHoursPreference.setChecked(value);
+                Utils.enableQuietHours(value, mContext);
+                return true;
+            } else if (Utils.QUIET_HOURS_START_KEY.equals(key)) {
+                Utils.setQuietHoursStart(Integer.parseInt((String) newValue), mContext);
+                return true;
+            } else if (Utils.QUIET_HOURS_END_KEY.equals(key)) {
+                Utils.setQuietHoursEnd(Integer.parseInt((String) newValue), mContext);
+                return true;
+            } else if (Utils.QUIET_HOURS_EXEMPT_KEY.equals(key)) {
+                @SuppressWarnings("unchecked")
+                Set<String> value = (Set<String>) newValue;
+                Utils.setQuietHoursExempt(value, mContext);
+                return true;
             } else if (preference == mPulseBrightness) {
                 int value = (Integer) newValue;
                 Settings.System.putInt(mContext.getContentResolver(),
@@ -245,6 +303,7 @@ public class DozeSettings extends PreferenceActivity implements PreferenceFragme
             mDozeOnChargePreference.setEnabled(!aodEnabled);
             mPickUpPreference.setEnabled(!aodEnabled);
             mRaiseToWakePreference.setEnabled(!aodEnabled);
+            mPickUpConfirmPreference.setEnabled(!aodEnabled);
             mHandwavePreference.setEnabled(!aodEnabled);
             mPocketPreference.setEnabled(!aodEnabled);
             mDoubleTapPreference.setEnabled(!aodEnabled);
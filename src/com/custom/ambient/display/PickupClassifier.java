@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2026 The BlissRoms Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.custom.ambient.display;
+
+// Tells a pick-up from a bump using a short accelerometer burst taken after a tilt event.
+// A picked up device is held tilted, upright and fairly steady, bumps leave it flat or shaking.
+public class PickupClassifier {
+
+    private static final float GRAVITY = 9.81f;
+
+    static final int MIN_SAMPLES = 4;
+    // Held devices are tilted at least this far from lying flat
+    private static final float MAX_FLAT_COS = 0.94f; // ~20 degrees
+    // Neither facing down nor upside down
+    private static final float MIN_UPRIGHT = -0.2f;
+    // Magnitude spread above this is shaking, not holding
+    private static final float MAX_JITTER = 2.5f;
+
+    private int mCount;
+    private float mSumX;
+    private float mSumY;
+    private float mSumZ;
+    private float mSumMagnitude;
+    private float mSumMagnitudeSq;
+
+    protected void reset() {
+        mCount = 0;
+        mSumX = mSumY = mSumZ = 0;
+        mSumMagnitude = mSumMagnitudeSq = 0;
+    }
+
+    protected void addSample(float x, float y, float z) {
+        float magnitude = (float) Math.sqrt(x * x + y * y + z * z);
+        mCount++;
+        mSumX += x;
+        mSumY += y;
+        mSumZ += z;
+        mSumMagnitude += magnitude;
+        mSumMagnitudeSq += magnitude * magnitude;
+    }
+
+    protected int getSampleCount() {
+        return mCount;
+    }
+
+    protected boolean isPickUp() {
+        if (mCount < MIN_SAMPLES) {
+            return false;
+        }
+        float meanMagnitude = mSumMagnitude / mCount;
+        float variance = mSumMagnitudeSq / mCount - meanMagnitude * meanMagnitude;
+        if (meanMagnitude < GRAVITY / 2 || meanMagnitude > GRAVITY * 1.5f
+                || Math.sqrt(Math.max(variance, 0)) > MAX_JITTER) {
+            return false;
+        }
+
+        float x = mSumX / mCount;
+        float y = mSumY / mCount;
+        float z = mSumZ / mCount;
+        float gravity = (float) Math.sqrt(x * x + y * y + z * z);
+        if (Math.abs(z) / gravity > MAX_FLAT_COS) {
+            return false;
+        }
+        return y / gravity >= MIN_UPRIGHT && z / gravity >= MIN_UPRIGHT;
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2026 The BlissRoms Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.custom.ambient.display;
+
+// Gestures ProximitySensor pulses for, read by its executor on every arming
+final class ProximityConfig {
+
+    final boolean handwave;
+    final boolean pocket;
+
+    ProximityConfig(boolean handwave, boolean pocket) {
+        this.handwave = handwave;
+        this.pocket = pocket;
+    }
+
+    boolean isEnabled() {
+        return handwave || pocket;
+    }
+}
@@ -17,49 +17,50 @@
 package com.custom.ambient.display;
 
 import android.content.Context;
+import android.content.SharedPreferences;
 import android.hardware.Sensor;
 import android.hardware.SensorEvent;
 import android.hardware.SensorEventListener;
 import android.hardware.SensorManager;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.util.Log;
 
+import java.io.PrintWriter;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 
-public class ProximitySensor implements SensorEventListener {
+public class ProximitySensor implements DozeDetector, SensorEventListener {
 
     private static final boolean DEBUG = false;
     private static final String TAG = "ProximitySensor";
 
-    private static final int POCKET_DELTA_NS = 1000 * 1000 * 1000;
-
-    private SensorManager mSensorManager;
     private Sensor mSensor;
     private Context mContext;
+    private PulseBackoff mPulseBackoff;
+    private SensorWatchdog mWatchdog;
+    private StateSnapshot mSnapshot;
 
-    private boolean mSawNear = false;
-    private long mInPocketTime = 0;
+    private final ConfigSlot<ProximityConfig> mConfig =
+            new ConfigSlot<>(new ProximityConfig(false, false));
 
-    private boolean mHandwaveGestureEnabled;
-    private boolean mPocketGestureEnabled;
+    // Main thread only, sensor events are delivered there
+    private final ProximityState mState =
+            new ProximityState(SystemClock::elapsedRealtimeNanos);
 
     private final ExecutorService mExecutorService;
+    // The watchdog is main thread only, the executor hands registrations back to it
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
 
-    public ProximitySensor(Context context) {
+    public ProximitySensor(Context context, PulseBackoff pulseBackoff,
+            SensorWatchdog watchdog, SensorCatalog catalog, StateSnapshot snapshot) {
         mContext = context;
-        mSensorManager = (SensorManager)
-                mContext.getSystemService(Context.SENSOR_SERVICE);
-        if (mSensorManager != null) {
-            String customProximity = mContext.getResources().getString(
-                                        R.string.config_custom_proximity);
-            if (!customProximity.isEmpty()) {
-                mSensorManager = mContext.getSystemService(SensorManager.class);
-                mSensor = Utils.getSensor(mSensorManager, customProximity);
-            } else {
-                mSensor = mSensorManager.getDefaultSensor(Sensor.TYPE_PROXIMITY);
-            }
-        }
+        mPulseBackoff = pulseBackoff;
+        mWatchdog = watchdog;
+        mSnapshot = snapshot;
+        mSensor = catalog.getSensor(SensorCatalog.PROXIMITY);
         mExecutorService = Executors.newSingleThreadExecutor();
     }
 
@@ -69,28 +70,19 @@ public class ProximitySensor implements SensorEventListener {
 
     @Override
     public void onSensorChanged(SensorEvent event) {
+        if (!mWatchdog.onSensorEvent(this)) {
+            return;
+        }
+        final ProximityConfig config = mConfig.read();
+        final boolean sawNear = mState.sawNear();
         boolean isNear = event.values[0] < mSensor.getMaximumRange();
-        if (mSawNear && !isNear) {
-            if (shouldPulse(event.timestamp)) {
-                Utils.launchDozePulse(mContext);
-            }
-        } else {
-            mInPocketTime = event.timestamp;
+        if (mState.onProximity(isNear, event.timestamp, config)
+                && mPulseBackoff.tryPulse(TAG)) {
+            Utils.launchDozePulse(mContext);
         }
-        mSawNear = isNear;
-    }
-
-    private boolean shouldPulse(long timestamp) {
-        long delta = timestamp - mInPocketTime;
-
-        if (mHandwaveGestureEnabled && mPocketGestureEnabled) {
-            return true;
-        } else if (mHandwaveGestureEnabled && !mPocketGestureEnabled) {
-            return delta < POCKET_DELTA_NS;
-        } else if (!mHandwaveGestureEnabled && mPocketGestureEnabled) {
-            return delta >= POCKET_DELTA_NS;
+        if (sawNear != isNear) {
+            mSnapshot.markDirty();
         }
-        return false;
     }
 
     @Override
@@ -99,27 +91,58 @@ public class ProximitySensor implements SensorEventListener {
     }
 
     // Switching screen OFF - we enable the sensor
-    protected void enable() {
+    @Override
+    public void enable() {
         if (DEBUG) Log.d(TAG, "Enabling");
         submit(() -> {
             // We save user settings so at next screen ON call (enable())
             // we don't need to read them again from the Settings provider
-            mHandwaveGestureEnabled = Utils.handwaveGestureEnabled(mContext);
-            mPocketGestureEnabled = Utils.pocketGestureEnabled(mContext);
-            if (mHandwaveGestureEnabled || mPocketGestureEnabled) {
-                mSensorManager.registerListener(this, mSensor,
-                        SensorManager.SENSOR_DELAY_NORMAL);
+            ProximityConfig config = new ProximityConfig(
+                    Utils.handwaveGestureEnabled(mContext),
+                    Utils.pocketGestureEnabled(mContext));
+            mConfig.publish(config);
+            if (config.isEnabled()) {
+                mHandler.post(() -> mWatchdog.register(this, mSensor,
+                        SensorManager.SENSOR_DELAY_NORMAL));
             }
         });
     }
 
     // Switching screen ON - we disable the sensor
-    protected void disable() {
+    @Override
+    public void disable() {
         if (DEBUG) Log.d(TAG, "Disabling");
         submit(() -> {
-            if (mHandwaveGestureEnabled || mPocketGestureEnabled) {
-                mSensorManager.unregisterListener(this, mSensor);
+            if (mConfig.read().isEnabled()) {
+                mHandler.post(() -> mWatchdog.unregister(this));
             }
         });
     }
+
+    @Override
+    public void destroy() {
+        if (DEBUG) Log.d(TAG, "Destroying");
+        // Queued behind any pending enable() so nothing registers afterwards
+        submit(() -> mHandler.post(() -> mWatchdog.remove(this)));
+        mExecutorService.shutdown();
+    }
+
+    @Override
+    public void saveState(SharedPreferences.Editor editor) {
+        mState.save(editor);
+    }
+
+    @Override
+    public void restoreState(SharedPreferences prefs) {
+        mState.restore(prefs);
+    }
+
+    @Override
+    public void dump(PrintWriter pw) {
+        ProximityConfig config = mConfig.read();
+        pw.println("ProximitySensor:");
+        pw.println("  sensor=" + (mSensor != null ? mSensor.getName() : null)
+                + " handwave=" + config.handwave
+                + " pocket=" + config.pocket);
+    }
 }
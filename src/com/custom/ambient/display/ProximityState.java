@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2026 The BlissRoms Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.custom.ambient.display;
+
+import android.content.SharedPreferences;
+
+import java.util.function.LongSupplier;
+
+// Hand wave and pocket tracking of ProximitySensor, main thread only
+final class ProximityState {
+
+    static final String KEY_SAW_NEAR = "proximity_saw_near";
+    static final String KEY_IN_POCKET_TIME = "proximity_in_pocket_time";
+    static final String KEY_SAVED_AT = "proximity_saved_at";
+
+    private static final long POCKET_DELTA_NS = 1000 * 1000 * 1000;
+    // The phone may have left the pocket while the service was dead, only trust
+    // state saved shortly before the restart
+    static final long MAX_RESTORED_AGE_NS = 60L * 1000 * 1000 * 1000;
+
+    private final LongSupplier mClock;
+    private boolean mSawNear = false;
+    private long mInPocketTime = 0;
+    // Until the first reading, which repeats a restored cover on re-registration
+    private boolean mRestoredCover = false;
+
+    // The clock must share the sensor event timestamp base
+    ProximityState(LongSupplier clock) {
+        mClock = clock;
+    }
+
+    // Feeds one reading, returns true if it completes a gesture we should pulse for
+    boolean onProximity(boolean isNear, long timestamp, ProximityConfig config) {
+        boolean pulse = false;
+        if (mSawNear && !isNear) {
+            pulse = shouldPulse(timestamp - mInPocketTime, config);
+        } else if (!mRestoredCover || !isNear) {
+            mInPocketTime = timestamp;
+        }
+        mSawNear = isNear;
+        mRestoredCover = false;
+        return pulse;
+    }
+
+    private static boolean shouldPulse(long delta, ProximityConfig config) {
+        if (config.handwave && config.pocket) {
+            return true;
+        } else if (config.handwave && !config.pocket) {
+            return delta < POCKET_DELTA_NS;
+        } else if (!config.handwave && config.pocket) {
+            return delta >= POCKET_DELTA_NS;
+        }
+        return false;
+    }
+
+    boolean sawNear() {
+        return mSawNear;
+    }
+
+    void save(SharedPreferences.Editor editor) {
+        editor.putBoolean(KEY_SAW_NEAR, mSawNear);
+        editor.putLong(KEY_IN_POCKET_TIME, mInPocketTime);
+        editor.putLong(KEY_SAVED_AT, mClock.getAsLong());
+    }
+
+    void restore(SharedPreferences prefs) {
+        if (!prefs.contains(KEY_SAVED_AT)) {
+            return;
+        }
+        long age = mClock.getAsLong() - prefs.getLong(KEY_SAVED_AT, 0);
+        if (age < 0 || age > MAX_RESTORED_AGE_NS) {
+            return;
+        }
+        mSawNear = prefs.getBoolean(KEY_SAW_NEAR, false);
+        mInPocketTime = prefs.getLong(KEY_IN_POCKET_TIME, 0);
+        mRestoredCover = mSawNear;
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2026 The BlissRoms Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.custom.ambient.display;
+
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import java.io.PrintWriter;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+// Main thread only, pulses come from sensor events and engagement from broadcasts
+public class PulseBackoff {
+
+    private static final boolean DEBUG = false;
+    private static final String TAG = "PulseBackoff";
+
+    // A pulse counts as answered if the screen comes on within this window
+    static final long ENGAGEMENT_WINDOW_MS = 10 * 1000;
+    // Unanswered pulses tolerated from a source before we start backing off
+    static final int IGNORED_PULSES_THRESHOLD = 3;
+    static final long MIN_BACKOFF_MS = 30 * 1000;
+    private static final long MAX_BACKOFF_MS = 30 * 60 * 1000;
+
+    private static final String KEY_SOURCES = "backoff_sources";
+
+    private static final class SourceState {
+        long lastPulseTime;
+        long lastSuppressedTime;
+        boolean awaitingEngagement;
+        int ignoredPulses;
+        long backoffUntil;
+        int pulses;
+        int savedPulses;
+    }
+
+    private final Map<String, SourceState> mSources = new HashMap<>();
+    private final Runnable mOnStateChanged;
+    private final LongSupplier mClock;
+
+    // The clock must be elapsed realtime based, saved state is compared against it
+    public PulseBackoff(Runnable onStateChanged, LongSupplier clock) {
+        mOnStateChanged = onStateChanged;
+        mClock = clock;
+    }
+
+    // Called by a gesture source before it pulses, returns false while backing off
+    protected boolean tryPulse(String source) {
+        final long now = mClock.getAsLong();
+        SourceState state = getState(source);
+
+        // Pulsing again before the previous pulse got an answer means it was ignored,
+        // even if its engagement window has not closed yet
+        if (state.awaitingEngagement) {
+            state.awaitingEngagement = false;
+            state.ignoredPulses++;
+            if (state.ignoredPulses >= IGNORED_PULSES_THRESHOLD) {
+                int shift = Math.min(state.ignoredPulses - IGNORED_PULSES_THRESHOLD, 16);
+                long backoff = Math.min(MIN_BACKOFF_MS << shift, MAX_BACKOFF_MS);
+                state.backoffUntil = now + backoff;
+                if (DEBUG) Log.d(TAG, source + ": backing off for " + backoff + "ms");
+            }
+        }
+
+        if (now < state.backoffUntil) {
+            state.lastSuppressedTime = now;
+            state.savedPulses++;
+            mOnStateChanged.run();
+            return false;
+        }
+
+        state.lastPulseTime = now;
+        state.awaitingEngagement = true;
+        state.pulses++;
+        mOnStateChanged.run();
+        return true;
+    }
+
+    // Screen on or user present, resets every source whose pulse was just answered
+    // or whose gesture was just held back, the user wanted the screen either way
+    protected void onUserEngaged() {
+        final long now = mClock.getAsLong();
+        for (Map.Entry<String, SourceState> entry : mSources.entrySet()) {
+            SourceState state = entry.getValue();
+            boolean answered = state.awaitingEngagement
+                    && now - state.lastPulseTime <= ENGAGEMENT_WINDOW_MS;
+            boolean suppressedRecently = state.lastSuppressedTime != 0
+                    && now < state.backoffUntil
+                    && now - state.lastSuppressedTime <= ENGAGEMENT_WINDOW_MS;
+            if (answered || suppressedRecently) {
+                if (DEBUG) Log.d(TAG, entry.getKey() + ": pulse answered, resetting");
+                state.awaitingEngagement = false;
+                state.ignoredPulses = 0;
+                state.backoffUntil = 0;
+                mOnStateChanged.run();
+            }
+        }
+    }
+
+    protected void saveState(SharedPreferences.Editor editor) {
+        editor.putStringSet(KEY_SOURCES, new HashSet<>(mSources.keySet()));
+        for (Map.Entry<String, SourceState> entry : mSources.entrySet()) {
+            String prefix = "backoff_" + entry.getKey() + "_";
+            SourceState state = entry.getValue();
+            editor.putLong(prefix + "last_pulse", state.lastPulseTime);
+            editor.putLong(prefix + "last_suppressed", state.lastSuppressedTime);
+            editor.putBoolean(prefix + "awaiting", state.awaitingEngagement);
+            editor.putInt(prefix + "ignored", state.ignoredPulses);
+            editor.putLong(prefix + "until", state.backoffUntil);
+            editor.putInt(prefix + "pulses", state.pulses);
+            editor.putInt(prefix + "saved", state.savedPulses);
+        }
+    }
+
+    protected void restoreState(SharedPreferences prefs) {
+        Set<String> sources = prefs.getStringSet(KEY_SOURCES, null);
+        if (sources == null) {
+            return;
+        }
+        for (String source : sources) {
+            String prefix = "backoff_" + source + "_";
+            SourceState state = getState(source);
+            state.lastPulseTime = prefs.getLong(prefix + "last_pulse", 0);
+            state.lastSuppressedTime = prefs.getLong(prefix + "last_suppressed", 0);
+            state.awaitingEngagement = prefs.getBoolean(prefix + "awaiting", false);
+            state.ignoredPulses = prefs.getInt(prefix + "ignored", 0);
+            state.backoffUntil = prefs.getLong(prefix + "until", 0);
+            state.pulses = prefs.getInt(prefix + "pulses", 0);
+            state.savedPulses = prefs.getInt(prefix + "saved", 0);
+        }
+    }
+
+    private SourceState getState(String source) {
+        SourceState state = mSources.get(source);
+        if (state == null) {
+            state = new SourceState();
+            mSources.put(source, state);
+        }
+        return state;
+    }
+
+    protected void dump(PrintWriter pw) {
+        final long now = mClock.getAsLong();
+        pw.println("PulseBackoff:");
+        for (Map.Entry<String, SourceState> entry : mSources.entrySet()) {
+            SourceState state = entry.getValue();
+            pw.println("  " + entry.getKey() + ":"
+                    + " pulses=" + state.pulses
+                    + " ignored=" + state.ignoredPulses
+                    + " backoffRemainingMs=" + Math.max(0, state.backoffUntil - now)
+                    + " savedPulses=" + state.savedPulses);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2026 The BlissRoms Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.custom.ambient.display;
+
+import android.app.AlarmManager;
+import android.app.PendingIntent;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.io.PrintWriter;
+import java.util.Calendar;
+import java.util.Set;
+
+public class QuietHours {
+
+    private static final boolean DEBUG = false;
+    private static final String TAG = "QuietHours";
+
+    private static final String ACTION_BOUNDARY =
+            "com.custom.ambient.display.action.QUIET_HOURS_BOUNDARY";
+
+    protected interface Callback {
+        void onQuietHoursChanged();
+    }
+
+    private final Context mContext;
+    private final Callback mCallback;
+    private final AlarmManager mAlarmManager;
+    private final PendingIntent mBoundaryIntent;
+
+    private boolean mEnabled;
+    private int mStart;
+    private int mEnd;
+    private Set<String> mExempt;
+    private boolean mActive;
+    private long mNextBoundary;
+
+    private boolean mHolding;
+    private long mHoldingSince;
+    private long mDisarmedTotal;
+
+    public QuietHours(Context context, Callback callback) {
+        mContext = context;
+        mCallback = callback;
+        mAlarmManager = context.getSystemService(AlarmManager.class);
+        mBoundaryIntent = PendingIntent.getBroadcast(context, 0,
+                new Intent(ACTION_BOUNDARY).setPackage(context.getPackageName()),
+                PendingIntent.FLAG_UPDATE_CURRENT);
+    }
+
+    protected void start() {
+        IntentFilter filter = new IntentFilter(ACTION_BOUNDARY);
+        filter.addAction(Intent.ACTION_TIME_CHANGED);
+        filter.addAction(Intent.ACTION_TIMEZONE_CHANGED);
+        mContext.registerReceiver(mReceiver, filter);
+        update();
+    }
+
+    protected void stop() {
+        mContext.unregisterReceiver(mReceiver);
+        mAlarmManager.cancel(mBoundaryIntent);
+    }
+
+    // Re-read the schedule, apply the current state and arm the next boundary
+    protected void update() {
+        mEnabled = Utils.quietHoursEnabled(mContext);
+        mStart = Utils.quietHoursStart(mContext);
+        mEnd = Utils.quietHoursEnd(mContext);
+        mExempt = Utils.quietHoursExempt(mContext);
+
+        mAlarmManager.cancel(mBoundaryIntent);
+        boolean active = false;
+        mNextBoundary = 0;
+        if (mEnabled && mStart != mEnd) {
+            Calendar now = Calendar.getInstance();
+            active = isInWindow(now.get(Calendar.HOUR_OF_DAY) * 60 + now.get(Calendar.MINUTE),
+                    mStart, mEnd);
+            mNextBoundary = Math.min(nextOccurrence(now, mStart), nextOccurrence(now, mEnd));
+            // Exact and idle-safe, sensors must be back before the user wakes up
+            mAlarmManager.setExactAndAllowWhileIdle(AlarmManager.RTC_WAKEUP,
+                    mNextBoundary, mBoundaryIntent);
+        }
+
+        if (active != mActive) {
+            if (DEBUG) Log.d(TAG, active ? "Entering quiet hours" : "Leaving quiet hours");
+            mActive = active;
+            mCallback.onQuietHoursChanged();
+        }
+    }
+
+    // True if the detector must stay disarmed right now
+    protected boolean isQuiet(String detector) {
+        return mActive && !mExempt.contains(detector);
+    }
+
+    // Reported by DozeService after every arming pass, true while quiet hours keep
+    // a detector disarmed that would be armed otherwise
+    protected void setHoldingDetectors(boolean holding) {
+        if (holding == mHolding) {
+            return;
+        }
+        final long now = SystemClock.elapsedRealtime();
+        if (holding) {
+            mHoldingSince = now;
+        } else {
+            mDisarmedTotal += now - mHoldingSince;
+        }
+        mHolding = holding;
+    }
+
+    private static boolean isInWindow(int minute, int start, int end) {
+        if (start < end) {
+            return minute >= start && minute < end;
+        }
+        return minute >= start || minute < end;
+    }
+
+    private static long nextOccurrence(Calendar now, int minuteOfDay) {
+        Calendar next = (Calendar) now.clone();
+        next.set(Calendar.HOUR_OF_DAY, minuteOfDay / 60);
+        next.set(Calendar.MINUTE, minuteOfDay % 60);
+        next.set(Calendar.SECOND, 0);
+        next.set(Calendar.MILLISECOND, 0);
+        if (!next.after(now)) {
+            next.add(Calendar.DAY_OF_YEAR, 1);
+        }
+        return next.getTimeInMillis();
+    }
+
+    protected void dump(PrintWriter pw) {
+        long disarmed = mDisarmedTotal;
+        if (mHolding) {
+            disarmed += SystemClock.elapsedRealtime() - mHoldingSince;
+        }
+        pw.println("QuietHours:");
+        pw.println("  enabled=" + mEnabled
+                + " window=" + String.format("%02d:%02d-%02d:%02d",
+                        mStart / 60, mStart % 60, mEnd / 60, mEnd % 60)
+                + " exempt=" + mExempt);
+        pw.println("  active=" + mActive
+                + " nextBoundary=" + mNextBoundary
+                + " disarmedMs=" + disarmed);
+    }
+
+    private final BroadcastReceiver mReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            update();
+        }
+    };
+}
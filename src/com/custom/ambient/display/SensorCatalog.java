@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2026 The BlissRoms Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.custom.ambient.display;
+
+import android.content.Context;
+import android.hardware.Sensor;
+import android.hardware.SensorManager;
+import android.util.ArrayMap;
+import android.util.Log;
+import android.util.SparseArray;
+
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+public class SensorCatalog {
+
+    private static final boolean DEBUG = false;
+    private static final String TAG = "SensorCatalog";
+
+    protected static final class Role {
+        protected final String name;
+        protected final int type;
+        // Config string naming an OEM sensor to use instead, 0 if none
+        protected final int customSensorRes;
+        protected final boolean wakeUp;
+        protected final int reportingMode;
+
+        private Role(String name, int type, int customSensorRes, boolean wakeUp,
+                int reportingMode) {
+            this.name = name;
+            this.type = type;
+            this.customSensorRes = customSensorRes;
+            this.wakeUp = wakeUp;
+            this.reportingMode = reportingMode;
+        }
+    }
+
+    protected static final Role TILT = new Role("tilt", Sensor.TYPE_TILT_DETECTOR,
+            R.string.config_custom_tilt, true, Sensor.REPORTING_MODE_SPECIAL_TRIGGER);
+    protected static final Role PROXIMITY = new Role("proximity", Sensor.TYPE_PROXIMITY,
+            R.string.config_custom_proximity, true, Sensor.REPORTING_MODE_ON_CHANGE);
+    // Only needs to be current when a tilt event already woke us up
+    protected static final Role POCKET = new Role("pocket", Sensor.TYPE_PROXIMITY,
+            0, false, Sensor.REPORTING_MODE_ON_CHANGE);
+    // Short confirmation bursts only, again while a tilt event holds us awake
+    protected static final Role ACCELEROMETER = new Role("accelerometer",
+            Sensor.TYPE_ACCELEROMETER, 0, false, Sensor.REPORTING_MODE_CONTINUOUS);
+
+    private static final class Choice {
+        final Sensor sensor;
+        final String reason;
+
+        Choice(Sensor sensor, String reason) {
+            this.sensor = sensor;
+            this.reason = reason;
+        }
+    }
+
+    private final Context mContext;
+    private final SparseArray<List<Sensor>> mByType = new SparseArray<>();
+    private final ArrayMap<String, List<Sensor>> mByStringType = new ArrayMap<>();
+    private final ArrayMap<String, Choice> mChoices = new ArrayMap<>();
+
+    public SensorCatalog(Context context) {
+        mContext = context;
+        SensorManager sm = context.getSystemService(SensorManager.class);
+        if (sm == null) {
+            return;
+        }
+        for (Sensor sensor : sm.getSensorList(Sensor.TYPE_ALL)) {
+            List<Sensor> byType = mByType.get(sensor.getType());
+            if (byType == null) {
+                byType = new ArrayList<>();
+                mByType.put(sensor.getType(), byType);
+            }
+            byType.add(sensor);
+
+            List<Sensor> byStringType = mByStringType.get(sensor.getStringType());
+            if (byStringType == null) {
+                byStringType = new ArrayList<>();
+                mByStringType.put(sensor.getStringType(), byStringType);
+            }
+            byStringType.add(sensor);
+        }
+    }
+
+    // Cheapest sensor able to serve the role, null if the device has none
+    protected synchronized Sensor getSensor(Role role) {
+        Choice choice = mChoices.get(role.name);
+        if (choice == null) {
+            choice = select(role);
+            mChoices.put(role.name, choice);
+            if (DEBUG) Log.d(TAG, role.name + ": " + choice.reason);
+        }
+        return choice.sensor;
+    }
+
+    private Choice select(Role role) {
+        List<Sensor> candidates;
+        String source;
+        String customType = role.customSensorRes != 0
+                ? mContext.getResources().getString(role.customSensorRes) : "";
+        if (!customType.isEmpty()) {
+            // The overlay names the exact sensor, only rank among its instances
+            candidates = mByStringType.get(customType);
+            source = "string type " + customType;
+        } else {
+            candidates = mByType.get(role.type);
+            source = "type " + role.type;
+        }
+        if (candidates == null || candidates.isEmpty()) {
+            return new Choice(null, "no sensor of " + source);
+        }
+
+        List<Sensor> ranked = new ArrayList<>(candidates);
+        Collections.sort(ranked, rankFor(role));
+        Sensor best = ranked.get(0);
+        String reason = "picked " + best.getName() + " of " + ranked.size()
+                + " by " + source
+                + ": wakeUp=" + best.isWakeUpSensor()
+                + (best.isWakeUpSensor() == role.wakeUp ? " (wanted)" : " (fallback)")
+                + " mode=" + best.getReportingMode()
+                + (best.getReportingMode() == role.reportingMode ? " (wanted)" : " (fallback)")
+                + " power=" + best.getPower() + "mA"
+                + " fifo=" + best.getFifoMaxEventCount();
+        return new Choice(best, reason);
+    }
+
+    // Wanted wakeup capability and reporting mode first, then lowest power, then deepest FIFO
+    private static Comparator<Sensor> rankFor(Role role) {
+        return (a, b) -> {
+            boolean aWake = a.isWakeUpSensor() == role.wakeUp;
+            boolean bWake = b.isWakeUpSensor() == role.wakeUp;
+            if (aWake != bWake) {
+                return aWake ? -1 : 1;
+            }
+            boolean aMode = a.getReportingMode() == role.reportingMode;
+            boolean bMode = b.getReportingMode() == role.reportingMode;
+            if (aMode != bMode) {
+                return aMode ? -1 : 1;
+            }
+            int power = Float.compare(a.getPower(), b.getPower());
+            if (power != 0) {
+                return power;
+            }
+            return Integer.compare(b.getFifoMaxEventCount(), a.getFifoMaxEventCount());
+        };
+    }
+
+    protected synchronized void dump(PrintWriter pw) {
+        pw.println("SensorCatalog:");
+        for (int i = 0; i < mChoices.size(); i++) {
+            pw.println("  " + mChoices.keyAt(i) + ": " + mChoices.valueAt(i).reason);
+        }
+    }
+}
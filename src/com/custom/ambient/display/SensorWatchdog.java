@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2026 The BlissRoms Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.custom.ambient.display;
+
+import android.hardware.Sensor;
+import android.hardware.SensorEventListener;
+import android.hardware.SensorManager;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.ArrayMap;
+import android.util.Log;
+
+import java.io.PrintWriter;
+import java.util.Arrays;
+
+// Main thread only, like the sensor events it checks
+public class SensorWatchdog {
+
+    private static final boolean DEBUG = false;
+    private static final String TAG = "SensorWatchdog";
+
+    // Event rate is counted over a sliding window split in buckets
+    private static final int WINDOW_MS = 2000;
+    private static final int WINDOW_BUCKETS = 10;
+    private static final int BUCKET_MS = WINDOW_MS / WINDOW_BUCKETS;
+    // Gesture sensors only report a handful of events, anything above is a flood
+    private static final int MAX_EVENTS_PER_WINDOW = 40;
+    // A flooding sensor stays unregistered for this long
+    private static final int THROTTLE_MS = 10 * 1000;
+    // On-change sensors must report their current state once registered
+    private static final int ARM_TIMEOUT_MS = 5 * 1000;
+    private static final int MAX_SILENT_REARMS = 3;
+
+    private final class Watch {
+        final SensorEventListener listener;
+        final Sensor sensor;
+        int delay;
+        boolean armed;
+        boolean throttled;
+        boolean sawEvent;
+
+        final int[] buckets = new int[WINDOW_BUCKETS];
+        long lastBucket;
+        int windowCount;
+
+        int events;
+        int floods;
+        int silentRearms;
+        int silentRearmsTotal;
+
+        final Runnable endThrottle = () -> endThrottle(this);
+        final Runnable checkSilence = () -> checkSilence(this);
+
+        Watch(SensorEventListener listener, Sensor sensor) {
+            this.listener = listener;
+            this.sensor = sensor;
+        }
+    }
+
+    private final SensorManager mSensorManager;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final ArrayMap<SensorEventListener, Watch> mWatches = new ArrayMap<>();
+    private final Runnable mOnRegistered;
+
+    public SensorWatchdog(SensorManager sensorManager, Runnable onRegistered) {
+        mSensorManager = sensorManager;
+        mOnRegistered = onRegistered;
+    }
+
+    // Detectors register through here so the watchdog can re-register on its own
+    protected void register(SensorEventListener listener, Sensor sensor,
+            int delay) {
+        if (sensor == null) {
+            return;
+        }
+        Watch watch = mWatches.get(listener);
+        if (watch == null) {
+            watch = new Watch(listener, sensor);
+            mWatches.put(listener, watch);
+        }
+        watch.delay = delay;
+        watch.armed = true;
+        watch.silentRearms = 0;
+        arm(watch);
+        mOnRegistered.run();
+    }
+
+    protected void unregister(SensorEventListener listener) {
+        Watch watch = mWatches.get(listener);
+        if (watch == null || !watch.armed) {
+            return;
+        }
+        watch.armed = false;
+        watch.throttled = false;
+        mHandler.removeCallbacks(watch.endThrottle);
+        mHandler.removeCallbacks(watch.checkSilence);
+        mSensorManager.unregisterListener(listener, watch.sensor);
+    }
+
+    // The detector owning the listener is gone, forget everything about it
+    protected void remove(SensorEventListener listener) {
+        unregister(listener);
+        mWatches.remove(listener);
+    }
+
+    // Called first thing in onSensorChanged, returns false if the event must be dropped
+    protected boolean onSensorEvent(SensorEventListener listener) {
+        Watch watch = mWatches.get(listener);
+        if (watch == null) {
+            return true;
+        }
+        if (!watch.armed || watch.throttled) {
+            return false;
+        }
+        watch.sawEvent = true;
+        watch.events++;
+
+        final long bucket = SystemClock.elapsedRealtime() / BUCKET_MS;
+        final long stale = Math.min(bucket - watch.lastBucket, WINDOW_BUCKETS);
+        for (int i = 1; i <= stale; i++) {
+            int index = (int) ((watch.lastBucket + i) % WINDOW_BUCKETS);
+            watch.windowCount -= watch.buckets[index];
+            watch.buckets[index] = 0;
+        }
+        watch.lastBucket = bucket;
+        watch.buckets[(int) (bucket % WINDOW_BUCKETS)]++;
+        watch.windowCount++;
+
+        if (watch.windowCount > MAX_EVENTS_PER_WINDOW) {
+            Log.w(TAG, watch.sensor.getName() + " is flooding, throttling for "
+                    + THROTTLE_MS + "ms");
+            watch.floods++;
+            watch.throttled = true;
+            mHandler.removeCallbacks(watch.checkSilence);
+            mSensorManager.unregisterListener(listener, watch.sensor);
+            mHandler.postDelayed(watch.endThrottle, THROTTLE_MS);
+            return false;
+        }
+        return true;
+    }
+
+    private void arm(Watch watch) {
+        watch.sawEvent = false;
+        watch.windowCount = 0;
+        Arrays.fill(watch.buckets, 0);
+        // Without a handler SensorManager already delivers on the main looper, passing
+        // ours only spells out the main thread confinement the detectors rely on
+        mSensorManager.registerListener(watch.listener, watch.sensor, watch.delay, mHandler);
+        if (watch.sensor.getReportingMode() == Sensor.REPORTING_MODE_ON_CHANGE) {
+            mHandler.removeCallbacks(watch.checkSilence);
+            mHandler.postDelayed(watch.checkSilence, ARM_TIMEOUT_MS);
+        }
+    }
+
+    private void endThrottle(Watch watch) {
+        if (!watch.armed || !watch.throttled) {
+            return;
+        }
+        if (DEBUG) Log.d(TAG, watch.sensor.getName() + ": re-registering after throttle");
+        watch.throttled = false;
+        arm(watch);
+    }
+
+    private void checkSilence(Watch watch) {
+        if (!watch.armed || watch.throttled || watch.sawEvent) {
+            return;
+        }
+        if (watch.silentRearms >= MAX_SILENT_REARMS) {
+            Log.w(TAG, watch.sensor.getName() + " stays silent, giving up");
+            return;
+        }
+        Log.w(TAG, watch.sensor.getName() + " is silent, re-arming");
+        watch.silentRearms++;
+        watch.silentRearmsTotal++;
+        mSensorManager.unregisterListener(watch.listener, watch.sensor);
+        arm(watch);
+    }
+
+    protected void dump(PrintWriter pw) {
+        pw.println("SensorWatchdog:");
+        for (Watch watch : mWatches.values()) {
+            pw.println("  " + watch.sensor.getName() + ":"
+                    + " armed=" + watch.armed
+                    + " throttled=" + watch.throttled
+                    + " eventsInWindow=" + watch.windowCount
+                    + " events=" + watch.events
+                    + " floods=" + watch.floods
+                    + " silentRearms=" + watch.silentRearmsTotal);
+        }
+    }
+}
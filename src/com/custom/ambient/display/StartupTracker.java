@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2026 The BlissRoms Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.custom.ambient.display;
+
+import java.util.function.LongSupplier;
+
+// Time from onCreate to the first sensor registration of the arming done there,
+// -1 if onCreate did not arm anything. Main thread only.
+final class StartupTracker {
+
+    private final LongSupplier mClock;
+    private final long mCreatedAt;
+    private boolean mCreating = true;
+    private boolean mWaiting = true;
+    private long mStartupToArmedMs = -1;
+
+    StartupTracker(LongSupplier clock) {
+        mClock = clock;
+        mCreatedAt = clock.getAsLong();
+    }
+
+    // End of onCreate, tilt may have registered already, proximity registers later
+    void onCreated(boolean armed) {
+        mCreating = false;
+        if (!armed) {
+            mWaiting = false;
+        }
+    }
+
+    // Registrations after a later arming change do not measure the startup
+    void onArmingChanged() {
+        if (!mCreating) {
+            mWaiting = false;
+        }
+    }
+
+    void onRegistered() {
+        if (mWaiting) {
+            mStartupToArmedMs = mClock.getAsLong() - mCreatedAt;
+            mWaiting = false;
+        }
+    }
+
+    long getStartupToArmedMs() {
+        return mStartupToArmedMs;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2026 The BlissRoms Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.custom.ambient.display;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+import android.provider.Settings;
+import android.util.Log;
+
+public class StateSnapshot {
+
+    private static final boolean DEBUG = false;
+    private static final String TAG = "StateSnapshot";
+
+    private static final String PREFS_NAME = "doze_state";
+    // Timestamps are elapsed realtime based, they mean nothing after a reboot
+    private static final String KEY_BOOT_COUNT = "boot_count";
+    // Coalesce bursts of changes into a single write
+    private static final int SAVE_DELAY_MS = 500;
+
+    protected interface Writer {
+        void writeState(SharedPreferences.Editor editor);
+    }
+
+    private final SharedPreferences mPrefs;
+    private final Writer mWriter;
+    private final int mBootCount;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    public StateSnapshot(Context context, Writer writer) {
+        // Device protected so a restart before unlock still finds it
+        mPrefs = context.createDeviceProtectedStorageContext()
+                .getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        mWriter = writer;
+        mBootCount = Settings.Global.getInt(context.getContentResolver(),
+                Settings.Global.BOOT_COUNT, 0);
+    }
+
+    // State left by a killed instance of the service, null if there is none for this boot
+    protected SharedPreferences getSavedState() {
+        if (mPrefs.getInt(KEY_BOOT_COUNT, -1) != mBootCount) {
+            return null;
+        }
+        return mPrefs;
+    }
+
+    protected void markDirty() {
+        mHandler.removeCallbacks(mSave);
+        mHandler.postDelayed(mSave, SAVE_DELAY_MS);
+    }
+
+    // Orderly shutdown, only a killed instance leaves state for its restart
+    protected void clear() {
+        mHandler.removeCallbacks(mSave);
+        mPrefs.edit().clear().apply();
+    }
+
+    private final Runnable mSave = () -> {
+        if (DEBUG) Log.d(TAG, "Saving state");
+        SharedPreferences.Editor editor = mPrefs.edit().clear();
+        editor.putInt(KEY_BOOT_COUNT, mBootCount);
+        mWriter.writeState(editor);
+        editor.apply();
+    };
+}
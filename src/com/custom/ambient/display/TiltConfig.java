@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) 2026 The BlissRoms Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.custom.ambient.display;
+
+// Read from the Settings provider once per arming instead of on every event
+final class TiltConfig {
+
+    final boolean raiseToWake;
+    final boolean pocket;
+    final boolean confirmPickUp;
+
+    TiltConfig(boolean raiseToWake, boolean pocket, boolean confirmPickUp) {
+        this.raiseToWake = raiseToWake;
+        this.pocket = pocket;
+        this.confirmPickUp = confirmPickUp;
+    }
+}
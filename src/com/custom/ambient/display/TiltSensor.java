@@ -17,16 +17,21 @@
 package com.custom.ambient.display;
 
 import android.content.Context;
+import android.content.SharedPreferences;
 import android.hardware.Sensor;
 import android.hardware.SensorEvent;
 import android.hardware.SensorEventListener;
 import android.hardware.SensorManager;
+import android.os.Handler;
+import android.os.Looper;
 import android.os.PowerManager;
 import android.os.PowerManager.WakeLock;
 import android.os.SystemClock;
 import android.util.Log;
 
-public class TiltSensor implements SensorEventListener {
+import java.io.PrintWriter;
+
+public class TiltSensor implements DozeDetector, SensorEventListener {
 
     private static final boolean DEBUG = false;
     private static final String TAG = "TiltSensor";
@@ -35,40 +40,59 @@ public class TiltSensor implements SensorEventListener {
     private static final int MIN_PULSE_INTERVAL_MS = 2500;
     private static final int MIN_WAKEUP_INTERVAL_MS = 1000;
     private static final int WAKELOCK_TIMEOUT_MS = 300;
+    // Accelerometer burst confirming a tilt event is a pick-up
+    private static final int CONFIRM_WINDOW_MS = 300;
+    private static final int CONFIRM_SAMPLES = 12;
 
     private PowerManager mPowerManager;
-    private SensorManager mSensorManager;
     private Sensor mSensor;
     private WakeLock mSensorWakeLock;
     private Context mContext;
+    private PulseBackoff mPulseBackoff;
+    private SensorWatchdog mWatchdog;
+    private StateSnapshot mSnapshot;
+
+    private final ConfigSlot<TiltConfig> mConfig =
+            new ConfigSlot<>(new TiltConfig(false, false, false));
 
     private Sensor mProximitySensor;
-    private boolean mInsidePocket = false;
 
+    // Main thread only, both listeners are delivered there
+    private final TiltState mState = new TiltState();
     private long mEntryTimestamp;
 
-    public TiltSensor(Context context) {
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final PickupClassifier mClassifier = new PickupClassifier();
+    private Sensor mAccelerometer;
+    private boolean mConfirming;
+    private boolean mConfirmRaiseToWake;
+    private long mConfirmStart;
+    private int mConfirmed;
+    private int mRejected;
+    private long mConfirmLatencyTotal;
+    private long mConfirmLatencyMax;
+
+    public TiltSensor(Context context, PulseBackoff pulseBackoff, SensorWatchdog watchdog,
+            SensorCatalog catalog, StateSnapshot snapshot) {
         mContext = context;
+        mPulseBackoff = pulseBackoff;
+        mWatchdog = watchdog;
+        mSnapshot = snapshot;
         mPowerManager = (PowerManager) mContext.getSystemService(Context.POWER_SERVICE);
-        mSensorManager = (SensorManager) mContext.getSystemService(Context.SENSOR_SERVICE);
-        if (mSensorManager != null) {
-            String customTilt = mContext.getResources().getString(
-                                        R.string.config_custom_tilt);
-            if (!customTilt.isEmpty()) {
-                mSensorManager = mContext.getSystemService(SensorManager.class);
-                mSensor = Utils.getSensor(mSensorManager, customTilt);
-            } else {
-                mSensor = mSensorManager.getDefaultSensor(Sensor.TYPE_TILT_DETECTOR);
-            }
-	    mProximitySensor = mSensorManager.getDefaultSensor(Sensor.TYPE_PROXIMITY, false);
-        }
+        mSensor = catalog.getSensor(SensorCatalog.TILT);
+        mProximitySensor = catalog.getSensor(SensorCatalog.POCKET);
+        mAccelerometer = catalog.getSensor(SensorCatalog.ACCELEROMETER);
         mSensorWakeLock = mPowerManager.newWakeLock(PowerManager.PARTIAL_WAKE_LOCK,
                 "SensorWakeLock");
     }
 
     @Override
     public void onSensorChanged(SensorEvent event) {
-	boolean raiseToWakeEnabled = Utils.raiseToWakeGestureEnabled(mContext);
+        if (!mWatchdog.onSensorEvent(this)) {
+            return;
+        }
+        final TiltConfig config = mConfig.read();
+        final boolean raiseToWakeEnabled = config.raiseToWake;
         if (DEBUG) Log.d(TAG, "Got sensor event: " + event.values[0]);
 
         long delta = SystemClock.elapsedRealtime() - mEntryTimestamp;
@@ -78,20 +102,85 @@ public class TiltSensor implements SensorEventListener {
 
         mEntryTimestamp = SystemClock.elapsedRealtime();
 
-	if (!raiseToWakeEnabled && !Utils.pocketGestureEnabled(mContext))
-	    mInsidePocket = false;
+	if (!raiseToWakeEnabled && !config.pocket)
+	    setInsidePocket(false);
 
-        if (event.values[0] == 1 && !mInsidePocket) {
-	    if (raiseToWakeEnabled) {
-                mSensorWakeLock.acquire(WAKELOCK_TIMEOUT_MS);
-                mPowerManager.wakeUp(SystemClock.uptimeMillis(),
-                    PowerManager.WAKE_REASON_GESTURE, TAG);
+        if (event.values[0] == 1 && !mState.isInsidePocket()) {
+            if (config.confirmPickUp && mAccelerometer != null) {
+                startConfirm(raiseToWakeEnabled);
             } else {
-                Utils.launchDozePulse(mContext);
+                onPickUp(raiseToWakeEnabled);
             }
         }
     }
 
+    private void onPickUp(boolean raiseToWakeEnabled) {
+        if (raiseToWakeEnabled) {
+            mSensorWakeLock.acquire(WAKELOCK_TIMEOUT_MS);
+            mPowerManager.wakeUp(SystemClock.uptimeMillis(),
+                PowerManager.WAKE_REASON_GESTURE, TAG);
+        } else if (mPulseBackoff.tryPulse(TAG)) {
+            Utils.launchDozePulse(mContext);
+        }
+    }
+
+    // Sample the accelerometer for a moment, it stays off the rest of the time
+    private void startConfirm(boolean raiseToWakeEnabled) {
+        if (mConfirming) {
+            return;
+        }
+        mConfirming = true;
+        mConfirmRaiseToWake = raiseToWakeEnabled;
+        mConfirmStart = SystemClock.elapsedRealtime();
+        mClassifier.reset();
+        mSensorWakeLock.acquire(CONFIRM_WINDOW_MS + WAKELOCK_TIMEOUT_MS);
+        mWatchdog.register(mAccelerometerListener, mAccelerometer,
+                SensorManager.SENSOR_DELAY_GAME);
+        mHandler.postDelayed(mFinishConfirm, CONFIRM_WINDOW_MS);
+    }
+
+    private void stopConfirm() {
+        mConfirming = false;
+        mHandler.removeCallbacks(mFinishConfirm);
+        mWatchdog.unregister(mAccelerometerListener);
+    }
+
+    private final Runnable mFinishConfirm = () -> {
+        if (!mConfirming) {
+            return;
+        }
+        stopConfirm();
+        long latency = SystemClock.elapsedRealtime() - mConfirmStart;
+        mConfirmLatencyTotal += latency;
+        mConfirmLatencyMax = Math.max(mConfirmLatencyMax, latency);
+        if (mClassifier.isPickUp()) {
+            if (DEBUG) Log.d(TAG, "Pick-up confirmed after " + latency + "ms");
+            mConfirmed++;
+            onPickUp(mConfirmRaiseToWake);
+        } else {
+            if (DEBUG) Log.d(TAG, "Pick-up rejected after " + latency + "ms");
+            mRejected++;
+        }
+    };
+
+    private SensorEventListener mAccelerometerListener = new SensorEventListener() {
+        @Override
+        public void onSensorChanged(SensorEvent event) {
+            if (!mWatchdog.onSensorEvent(this) || !mConfirming) {
+                return;
+            }
+            mClassifier.addSample(event.values[0], event.values[1], event.values[2]);
+            if (mClassifier.getSampleCount() >= CONFIRM_SAMPLES) {
+                mFinishConfirm.run();
+            }
+        }
+
+        @Override
+        public void onAccuracyChanged(Sensor sensor, int accuracy) {
+            /* Empty */
+        }
+    };
+
     @Override
     public void onAccuracyChanged(Sensor sensor, int accuracy) {
         /* Empty */
@@ -100,7 +189,10 @@ public class TiltSensor implements SensorEventListener {
     private SensorEventListener mProximityListener = new SensorEventListener() {
 	@Override
 	public void onSensorChanged(SensorEvent event) {
-	    mInsidePocket = event.values[0] < mProximitySensor.getMaximumRange();
+            if (!mWatchdog.onSensorEvent(this)) {
+                return;
+            }
+	    setInsidePocket(event.values[0] < mProximitySensor.getMaximumRange());
 	}
 
 	@Override
@@ -109,23 +201,64 @@ public class TiltSensor implements SensorEventListener {
 	}
     };
 
-    protected void enable() {
+    private void setInsidePocket(boolean insidePocket) {
+        if (mState.setInsidePocket(insidePocket)) {
+            mSnapshot.markDirty();
+        }
+    }
+
+    @Override
+    public void enable() {
         if (DEBUG) Log.d(TAG, "Enabling");
-        mSensorManager.registerListener(this, mSensor,
-                SensorManager.SENSOR_DELAY_NORMAL);
-	if (Utils.raiseToWakeGestureEnabled(mContext)) {
-	    mSensorManager.registerListener(mProximityListener, mProximitySensor,
+        TiltConfig config = new TiltConfig(Utils.raiseToWakeGestureEnabled(mContext),
+                Utils.pocketGestureEnabled(mContext), Utils.pickUpConfirmEnabled(mContext));
+        mConfig.publish(config);
+        mWatchdog.register(this, mSensor, SensorManager.SENSOR_DELAY_NORMAL);
+	if (config.raiseToWake) {
+	    mWatchdog.register(mProximityListener, mProximitySensor,
                     SensorManager.SENSOR_DELAY_NORMAL);
 	}
         mEntryTimestamp = SystemClock.elapsedRealtime();
     }
 
-    protected void disable() {
+    @Override
+    public void disable() {
         if (DEBUG) Log.d(TAG, "Disabling");
-        mSensorManager.unregisterListener(this, mSensor);
-	if (Utils.raiseToWakeGestureEnabled(mContext)) {
-	    mSensorManager.unregisterListener(mProximityListener, mProximitySensor);
-	}
+        mWatchdog.unregister(this);
+        // The gesture may have been switched off while armed, always drop it
+        mWatchdog.unregister(mProximityListener);
+        stopConfirm();
     }
-}
 
+    @Override
+    public void destroy() {
+        if (DEBUG) Log.d(TAG, "Destroying");
+        disable();
+        mWatchdog.remove(this);
+        mWatchdog.remove(mProximityListener);
+        mWatchdog.remove(mAccelerometerListener);
+    }
+
+    // mEntryTimestamp is not saved, every arming seeds it again
+    @Override
+    public void saveState(SharedPreferences.Editor editor) {
+        mState.save(editor);
+    }
+
+    @Override
+    public void restoreState(SharedPreferences prefs) {
+        mState.restore(prefs);
+    }
+
+    @Override
+    public void dump(PrintWriter pw) {
+        int decisions = mConfirmed + mRejected;
+        pw.println("TiltSensor:");
+        pw.println("  sensor=" + (mSensor != null ? mSensor.getName() : null)
+                + " confirmPickUp=" + mConfig.read().confirmPickUp);
+        pw.println("  confirmed=" + mConfirmed
+                + " rejected=" + mRejected
+                + " avgLatencyMs=" + (decisions > 0 ? mConfirmLatencyTotal / decisions : 0)
+                + " maxLatencyMs=" + mConfirmLatencyMax);
+    }
+}
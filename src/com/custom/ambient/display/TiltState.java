@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2026 The BlissRoms Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.custom.ambient.display;
+
+import android.content.SharedPreferences;
+
+// Pocket tracking of TiltSensor, main thread only
+final class TiltState {
+
+    static final String KEY_INSIDE_POCKET = "tilt_inside_pocket";
+
+    private boolean mInsidePocket = false;
+
+    boolean isInsidePocket() {
+        return mInsidePocket;
+    }
+
+    // Returns true if the state changed
+    boolean setInsidePocket(boolean insidePocket) {
+        if (mInsidePocket == insidePocket) {
+            return false;
+        }
+        mInsidePocket = insidePocket;
+        return true;
+    }
+
+    void save(SharedPreferences.Editor editor) {
+        editor.putBoolean(KEY_INSIDE_POCKET, mInsidePocket);
+    }
+
+    void restore(SharedPreferences prefs) {
+        mInsidePocket = prefs.getBoolean(KEY_INSIDE_POCKET, false);
+    }
+}
@@ -21,14 +21,17 @@ import android.app.ActivityManager.RunningServiceInfo;
 import android.content.Context;
 import android.content.Intent;
 import android.content.SharedPreferences;
-import android.hardware.Sensor;
-import android.hardware.SensorManager;
 import android.hardware.display.AmbientDisplayConfiguration;
 import android.os.UserHandle;
 import android.preference.PreferenceManager;
 import android.provider.Settings;
+import android.text.TextUtils;
+import android.util.ArraySet;
 import android.util.Log;
 
+import java.util.Arrays;
+import java.util.Set;
+
 public final class Utils {
 
     private static final String TAG = "DozeUtils";
@@ -47,6 +50,21 @@ public final class Utils {
     protected static final String MUSIC_TICKER_KEY = "pulse_on_new_tracks";
     protected static final String OMNI_DOZE_BRIGHTNESS_KEY = "doze_brightness";
     protected static final String OMNI_PULSE_BRIGHTNESS_KEY = "pulse_brightness";
+    protected static final String PICK_UP_CONFIRM_KEY = "pick_up_confirm";
+    protected static final String QUIET_HOURS_KEY = "quiet_hours";
+    protected static final String QUIET_HOURS_START_KEY = "quiet_hours_start";
+    protected static final String QUIET_HOURS_END_KEY = "quiet_hours_end";
+    protected static final String QUIET_HOURS_EXEMPT_KEY = "quiet_hours_exempt";
+
+    protected static final String PICK_UP_CONFIRM_SETTING = "custom_doze_pick_up_confirm";
+    protected static final String QUIET_HOURS_SETTING = "custom_doze_quiet_hours";
+    protected static final String QUIET_HOURS_START_SETTING = "custom_doze_quiet_hours_start";
+    protected static final String QUIET_HOURS_END_SETTING = "custom_doze_quiet_hours_end";
+    protected static final String QUIET_HOURS_EXEMPT_SETTING = "custom_doze_quiet_hours_exempt";
+
+    // Minutes of the day
+    private static final int QUIET_HOURS_DEFAULT_START = 23 * 60;
+    private static final int QUIET_HOURS_DEFAULT_END = 7 * 60;
 
     protected static void startService(Context context) {
         if (DEBUG) Log.d(TAG, "Starting service");
@@ -134,6 +152,37 @@ public final class Utils {
                 Settings.System.CUSTOM_AMBIENT_POCKETMODE_GESTURE, 0) != 0;
     }
 
+    protected static boolean pickUpConfirmEnabled(Context context) {
+        return Settings.System.getInt(context.getContentResolver(),
+                PICK_UP_CONFIRM_SETTING, 0) != 0;
+    }
+
+    protected static boolean quietHoursEnabled(Context context) {
+        return Settings.System.getInt(context.getContentResolver(),
+                QUIET_HOURS_SETTING, 0) != 0;
+    }
+
+    protected static int quietHoursStart(Context context) {
+        return Settings.System.getInt(context.getContentResolver(),
+                QUIET_HOURS_START_SETTING, QUIET_HOURS_DEFAULT_START);
+    }
+
+    protected static int quietHoursEnd(Context context) {
+        return Settings.System.getInt(context.getContentResolver(),
+                QUIET_HOURS_END_SETTING, QUIET_HOURS_DEFAULT_END);
+    }
+
+    // Detectors that keep running during quiet hours
+    protected static Set<String> quietHoursExempt(Context context) {
+        String exempt = Settings.System.getString(context.getContentResolver(),
+                QUIET_HOURS_EXEMPT_SETTING);
+        Set<String> detectors = new ArraySet<>();
+        if (!TextUtils.isEmpty(exempt)) {
+            detectors.addAll(Arrays.asList(exempt.split(",")));
+        }
+        return detectors;
+    }
+
     protected static boolean enableDoze(boolean enable, Context context) {
         boolean enabled = Settings.Secure.putInt(context.getContentResolver(),
                 Settings.Secure.DOZE_ENABLED, enable ? 1 : 0);
@@ -178,6 +227,31 @@ public final class Utils {
         return enabled;
     }
 
+    protected static boolean enablePickUpConfirm(boolean enable, Context context) {
+        return Settings.System.putInt(context.getContentResolver(),
+                PICK_UP_CONFIRM_SETTING, enable ? 1 : 0);
+    }
+
+    protected static boolean enableQuietHours(boolean enable, Context context) {
+        return Settings.System.putInt(context.getContentResolver(),
+                QUIET_HOURS_SETTING, enable ? 1 : 0);
+    }
+
+    protected static boolean setQuietHoursStart(int minute, Context context) {
+        return Settings.System.putInt(context.getContentResolver(),
+                QUIET_HOURS_START_SETTING, minute);
+    }
+
+    protected static boolean setQuietHoursEnd(int minute, Context context) {
+        return Settings.System.putInt(context.getContentResolver(),
+                QUIET_HOURS_END_SETTING, minute);
+    }
+
+    protected static boolean setQuietHoursExempt(Set<String> detectors, Context context) {
+        return Settings.System.putString(context.getContentResolver(),
+                QUIET_HOURS_EXEMPT_SETTING, TextUtils.join(",", detectors));
+    }
+
     private static void manageService(Context context) {
         if (sensorsEnabled(context)) {
             startService(context);
@@ -193,16 +267,11 @@ public final class Utils {
     }
 
     protected static boolean sensorsEnabled(Context context) {
-        return tiltGestureEnabled(context) || handwaveGestureEnabled(context) ||
-                raiseToWakeGestureEnabled(context) || pocketGestureEnabled(context);
-    }
-
-    protected static Sensor getSensor(SensorManager sm, String type) {
-        for (Sensor sensor : sm.getSensorList(Sensor.TYPE_ALL)) {
-            if (type.equals(sensor.getStringType())) {
-                return sensor;
+        for (DetectorRegistry.Entry entry : DetectorRegistry.ENTRIES) {
+            if (entry.isEnabled(context)) {
+                return true;
             }
         }
-        return null;
+        return false;
     }
 }
@@ -0,0 +1,40 @@
+LOCAL_PATH:= $(call my-dir)
+
+# Plain JVM tests of the parts of the service that do not need the framework,
+# run with atest CustomDozeHostTests
+include $(CLEAR_VARS)
+
+LOCAL_MODULE := CustomDozeHostTests
+LOCAL_MODULE_TAGS := tests
+LOCAL_COMPATIBILITY_SUITE := general-tests
+LOCAL_TEST_CONFIG := AndroidTest.xml
+
+LOCAL_SRC_FILES := \
+    $(call all-java-files-under, src) \
+    ../src/com/custom/ambient/display/ConfigSlot.java \
+    ../src/com/custom/ambient/display/PulseBackoff.java \
+    ../src/com/custom/ambient/display/PickupClassifier.java \
+    ../src/com/custom/ambient/display/ProximityConfig.java \
+    ../src/com/custom/ambient/display/ProximityState.java \
+    ../src/com/custom/ambient/display/StartupTracker.java \
+    ../src/com/custom/ambient/display/TiltConfig.java \
+    ../src/com/custom/ambient/display/TiltState.java
+
+# The classes under test only touch framework interfaces such as
+# SharedPreferences, the SDK stubs are linked in so those load at runtime
+LOCAL_STATIC_JAVA_LIBRARIES := \
+    junit-host \
+    CustomDozeHostTests-android-stubs
+
+include $(BUILD_HOST_JAVA_LIBRARY)
+
+include $(CLEAR_VARS)
+
+LOCAL_MODULE := CustomDozeHostTests-android-stubs
+LOCAL_MODULE_TAGS := tests
+LOCAL_MODULE_CLASS := JAVA_LIBRARIES
+LOCAL_MODULE_SUFFIX := $(COMMON_JAVA_PACKAGE_SUFFIX)
+LOCAL_IS_HOST_MODULE := true
+LOCAL_PREBUILT_MODULE_FILE := $(HISTORICAL_SDK_VERSIONS_ROOT)/current/public/android.jar
+
+include $(BUILD_PREBUILT)
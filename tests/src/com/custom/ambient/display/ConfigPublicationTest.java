@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2026 The BlissRoms Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.custom.ambient.display;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+// Checks the ConfigSlot the detectors publish their config through. The field
+// checks pin down what makes the publication safe, the stress run has one thread
+// publish configs with all fields equal while another reads them and fails on a
+// mix. A stress run alone proves little on strongly ordered hardware like x86.
+@RunWith(JUnit4.class)
+public class ConfigPublicationTest {
+
+    private static final int SWAPS = 1000 * 1000;
+
+    private static void assertAllFinal(Class<?> clazz) {
+        for (Field field : clazz.getDeclaredFields()) {
+            if (!field.isSynthetic()) {
+                assertTrue(clazz.getSimpleName() + "." + field.getName() + " is not final",
+                        Modifier.isFinal(field.getModifiers()));
+            }
+        }
+    }
+
+    @Test
+    public void slotIsVolatile() throws NoSuchFieldException {
+        Field field = ConfigSlot.class.getDeclaredField("mConfig");
+        assertTrue(Modifier.isVolatile(field.getModifiers()));
+    }
+
+    @Test
+    public void configsAreImmutable() {
+        assertAllFinal(ProximityConfig.class);
+        assertAllFinal(TiltConfig.class);
+    }
+
+    // Publishes alternating configs until SWAPS, returns how many reads were checked
+    private static <T> long stress(Function<Boolean, T> factory, Function<T, String> torn)
+            throws InterruptedException {
+        final ConfigSlot<T> slot = new ConfigSlot<>(factory.apply(false));
+        final AtomicBoolean done = new AtomicBoolean();
+        final AtomicReference<String> failure = new AtomicReference<>();
+        final long[] reads = new long[1];
+
+        Thread reader = new Thread(() -> {
+            do {
+                String error = torn.apply(slot.read());
+                if (error != null) {
+                    failure.set(error);
+                }
+                reads[0]++;
+            } while (!done.get() && failure.get() == null);
+        });
+        reader.start();
+        for (int i = 0; i < SWAPS && failure.get() == null; i++) {
+            slot.publish(factory.apply(i % 2 == 0));
+        }
+        done.set(true);
+        reader.join();
+
+        assertEquals(null, failure.get());
+        return reads[0];
+    }
+
+    @Test
+    public void proximityConfigIsNeverTorn() throws InterruptedException {
+        long reads = stress(value -> new ProximityConfig(value, value), config -> {
+            if (config.handwave != config.pocket || config.isEnabled() != config.handwave) {
+                return "handwave=" + config.handwave + " pocket=" + config.pocket;
+            }
+            return null;
+        });
+        assertTrue(reads > 0);
+    }
+
+    @Test
+    public void tiltConfigIsNeverTorn() throws InterruptedException {
+        long reads = stress(value -> new TiltConfig(value, value, value), config -> {
+            if (config.raiseToWake != config.pocket || config.pocket != config.confirmPickUp) {
+                return "raiseToWake=" + config.raiseToWake + " pocket=" + config.pocket
+                        + " confirmPickUp=" + config.confirmPickUp;
+            }
+            return null;
+        });
+        assertTrue(reads > 0);
+    }
+}
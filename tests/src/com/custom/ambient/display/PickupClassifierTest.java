@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2026 The BlissRoms Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.custom.ambient.display;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class PickupClassifierTest {
+
+    private static final int SAMPLES = 12;
+
+    private PickupClassifier mClassifier;
+
+    @Before
+    public void setUp() {
+        mClassifier = new PickupClassifier();
+    }
+
+    private void addSamples(int count, float x, float y, float z) {
+        for (int i = 0; i < count; i++) {
+            mClassifier.addSample(x, y, z);
+        }
+    }
+
+    @Test
+    public void steadyHeldPhoneIsPickUp() {
+        // Held in front of the face, about 45 degrees back
+        addSamples(SAMPLES, 0.3f, 7.0f, 6.8f);
+        assertTrue(mClassifier.isPickUp());
+    }
+
+    @Test
+    public void slightlyNoisyHoldIsPickUp() {
+        for (int i = 0; i < SAMPLES; i++) {
+            float noise = i % 2 == 0 ? 0.4f : -0.4f;
+            mClassifier.addSample(noise, 7.0f + noise, 6.8f - noise);
+        }
+        assertTrue(mClassifier.isPickUp());
+    }
+
+    @Test
+    public void phoneLyingFlatIsNot() {
+        addSamples(SAMPLES, 0.1f, 0.2f, 9.8f);
+        assertFalse(mClassifier.isPickUp());
+    }
+
+    @Test
+    public void phoneFaceDownIsNot() {
+        addSamples(SAMPLES, 0.1f, 0.2f, -9.8f);
+        assertFalse(mClassifier.isPickUp());
+        mClassifier.reset();
+        // Tilted enough to pass the flatness check, still facing down
+        addSamples(SAMPLES, 0.0f, 6.0f, -7.7f);
+        assertFalse(mClassifier.isPickUp());
+    }
+
+    @Test
+    public void phoneUpsideDownIsNot() {
+        addSamples(SAMPLES, 0.0f, -7.0f, 6.8f);
+        assertFalse(mClassifier.isPickUp());
+    }
+
+    @Test
+    public void shakenPhoneIsNot() {
+        // Same mean direction as a held phone, magnitude swinging around gravity
+        for (int i = 0; i < SAMPLES; i++) {
+            float scale = i % 2 == 0 ? 0.5f : 1.5f;
+            mClassifier.addSample(0.3f * scale, 7.0f * scale, 6.8f * scale);
+        }
+        assertFalse(mClassifier.isPickUp());
+    }
+
+    @Test
+    public void freeFallIsNot() {
+        addSamples(SAMPLES, 0.0f, 2.0f, 2.0f);
+        assertFalse(mClassifier.isPickUp());
+    }
+
+    @Test
+    public void needsMinimumSamples() {
+        addSamples(PickupClassifier.MIN_SAMPLES - 1, 0.3f, 7.0f, 6.8f);
+        assertFalse(mClassifier.isPickUp());
+        addSamples(1, 0.3f, 7.0f, 6.8f);
+        assertEquals(PickupClassifier.MIN_SAMPLES, mClassifier.getSampleCount());
+        assertTrue(mClassifier.isPickUp());
+    }
+
+    @Test
+    public void resetDropsSamples() {
+        addSamples(SAMPLES, 0.3f, 7.0f, 6.8f);
+        mClassifier.reset();
+        assertEquals(0, mClassifier.getSampleCount());
+        assertFalse(mClassifier.isPickUp());
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2026 The BlissRoms Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.custom.ambient.display;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ProximityStateTest {
+
+    private static final long MS = 1000 * 1000;
+
+    private static final ProximityConfig HANDWAVE = new ProximityConfig(true, false);
+    private static final ProximityConfig POCKET = new ProximityConfig(false, true);
+    private static final ProximityConfig BOTH = new ProximityConfig(true, true);
+
+    private long mNow;
+
+    private ProximityState newState() {
+        return new ProximityState(() -> mNow);
+    }
+
+    // Saves at the current time, restores into a new instance after the given delay
+    private ProximityState restartAfter(ProximityState state, long delay) {
+        FakeSharedPreferences prefs = new FakeSharedPreferences();
+        prefs.write(state::save);
+        mNow += delay;
+        ProximityState restored = newState();
+        restored.restore(prefs);
+        return restored;
+    }
+
+    @Test
+    public void farWithoutNearDoesNotPulse() {
+        ProximityState state = newState();
+        assertFalse(state.onProximity(false, 100 * MS, BOTH));
+    }
+
+    @Test
+    public void handwaveOnlyWantsShortCover() {
+        ProximityState state = newState();
+        state.onProximity(true, 0, HANDWAVE);
+        assertTrue(state.onProximity(false, 500 * MS, HANDWAVE));
+        state.onProximity(true, 1000 * MS, HANDWAVE);
+        assertFalse(state.onProximity(false, 3000 * MS, HANDWAVE));
+    }
+
+    @Test
+    public void pocketOnlyWantsLongCover() {
+        ProximityState state = newState();
+        state.onProximity(true, 0, POCKET);
+        assertFalse(state.onProximity(false, 500 * MS, POCKET));
+        state.onProximity(true, 1000 * MS, POCKET);
+        assertTrue(state.onProximity(false, 3000 * MS, POCKET));
+    }
+
+    @Test
+    public void restoredCoverKeepsItsStartThroughInitialNear() {
+        ProximityState state = newState();
+        state.onProximity(true, 0, POCKET);
+        mNow = 500 * MS;
+        ProximityState restored = restartAfter(state, 500 * MS);
+        assertTrue(restored.sawNear());
+        // Re-registration reports the cover again, pulled out right after
+        assertFalse(restored.onProximity(true, mNow, POCKET));
+        assertTrue(restored.onProximity(false, mNow + 200 * MS, POCKET));
+    }
+
+    @Test
+    public void restoredCoverIsNoHandwave() {
+        ProximityState state = newState();
+        state.onProximity(true, 0, HANDWAVE);
+        mNow = 500 * MS;
+        ProximityState restored = restartAfter(state, 2000 * MS);
+        restored.onProximity(true, mNow, HANDWAVE);
+        assertFalse(restored.onProximity(false, mNow + 200 * MS, HANDWAVE));
+    }
+
+    @Test
+    public void onlyFirstReadingKeepsRestoredStart() {
+        ProximityState state = newState();
+        state.onProximity(true, 0, HANDWAVE);
+        ProximityState restored = restartAfter(state, 2000 * MS);
+        restored.onProximity(true, mNow, HANDWAVE);
+        // Re-armed later, that registration starts a new cover
+        restored.onProximity(true, mNow + 3000 * MS, HANDWAVE);
+        assertTrue(restored.onProximity(false, mNow + 3200 * MS, HANDWAVE));
+    }
+
+    @Test
+    public void staleCoverIsDropped() {
+        ProximityState state = newState();
+        state.onProximity(true, 0, POCKET);
+        ProximityState restored = restartAfter(state,
+                ProximityState.MAX_RESTORED_AGE_NS + 1000 * MS);
+        assertFalse(restored.sawNear());
+        // Left the pocket while the service was dead, no pulse on re-registration
+        assertFalse(restored.onProximity(false, mNow, POCKET));
+    }
+
+    @Test
+    public void stateWithoutSaveTimeIsDropped() {
+        FakeSharedPreferences prefs = new FakeSharedPreferences();
+        prefs.write(editor -> editor.putBoolean(ProximityState.KEY_SAW_NEAR, true));
+        ProximityState restored = newState();
+        restored.restore(prefs);
+        assertFalse(restored.sawNear());
+    }
+
+    @Test
+    public void savesUnderItsKeys() {
+        ProximityState state = newState();
+        state.onProximity(true, 42, BOTH);
+        mNow = 1000 * MS;
+        FakeSharedPreferences prefs = new FakeSharedPreferences();
+        prefs.write(state::save);
+        assertTrue(prefs.getBoolean(ProximityState.KEY_SAW_NEAR, false));
+        assertEquals(42, prefs.getLong(ProximityState.KEY_IN_POCKET_TIME, 0));
+        assertEquals(mNow, prefs.getLong(ProximityState.KEY_SAVED_AT, 0));
+    }
+}
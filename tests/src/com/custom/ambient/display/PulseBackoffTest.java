@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2026 The BlissRoms Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.custom.ambient.display;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class PulseBackoffTest {
+
+    private static final String SOURCE = "TiltSensor";
+
+    private long mNow;
+    private int mChanges;
+    private PulseBackoff mBackoff;
+
+    @Before
+    public void setUp() {
+        mNow = 1000;
+        mChanges = 0;
+        mBackoff = newBackoff();
+    }
+
+    private PulseBackoff newBackoff() {
+        return new PulseBackoff(() -> mChanges++, () -> mNow);
+    }
+
+    // Pulses the source every second until it gets refused, returns how many went out
+    private int pulseUntilRefused(PulseBackoff backoff) {
+        int pulses = 0;
+        while (backoff.tryPulse(SOURCE)) {
+            pulses++;
+            mNow += 1000;
+        }
+        return pulses;
+    }
+
+    @Test
+    public void rapidUnansweredPulsesBackOff() {
+        assertEquals(PulseBackoff.IGNORED_PULSES_THRESHOLD, pulseUntilRefused(mBackoff));
+        assertTrue(mChanges > 0);
+    }
+
+    @Test
+    public void answeredPulsesNeverBackOff() {
+        for (int i = 0; i < 10 * PulseBackoff.IGNORED_PULSES_THRESHOLD; i++) {
+            assertTrue(mBackoff.tryPulse(SOURCE));
+            mNow += 1000;
+            mBackoff.onUserEngaged();
+        }
+    }
+
+    @Test
+    public void backoffEndsAfterMinimum() {
+        pulseUntilRefused(mBackoff);
+        mNow += PulseBackoff.MIN_BACKOFF_MS;
+        assertTrue(mBackoff.tryPulse(SOURCE));
+    }
+
+    @Test
+    public void engagementAfterSuppressedPulseEndsBackoff() {
+        pulseUntilRefused(mBackoff);
+        mNow += 2000;
+        mBackoff.onUserEngaged();
+        assertTrue(mBackoff.tryPulse(SOURCE));
+    }
+
+    @Test
+    public void lateEngagementKeepsBackoff() {
+        pulseUntilRefused(mBackoff);
+        mNow += PulseBackoff.ENGAGEMENT_WINDOW_MS + 1000;
+        mBackoff.onUserEngaged();
+        assertFalse(mBackoff.tryPulse(SOURCE));
+    }
+
+    @Test
+    public void backoffSurvivesRestore() {
+        pulseUntilRefused(mBackoff);
+        FakeSharedPreferences prefs = new FakeSharedPreferences();
+        prefs.write(mBackoff::saveState);
+
+        PulseBackoff restored = newBackoff();
+        restored.restoreState(prefs);
+        assertFalse(restored.tryPulse(SOURCE));
+        mNow += PulseBackoff.MIN_BACKOFF_MS;
+        assertTrue(restored.tryPulse(SOURCE));
+    }
+
+    @Test
+    public void pendingPulseAnsweredAfterRestore() {
+        assertTrue(mBackoff.tryPulse(SOURCE));
+        FakeSharedPreferences prefs = new FakeSharedPreferences();
+        prefs.write(mBackoff::saveState);
+
+        PulseBackoff restored = newBackoff();
+        restored.restoreState(prefs);
+        mNow += 1000;
+        restored.onUserEngaged();
+        // The answered pulse does not count towards the threshold
+        assertEquals(PulseBackoff.IGNORED_PULSES_THRESHOLD, pulseUntilRefused(restored));
+    }
+
+    @Test
+    public void emptyStateRestoresClean() {
+        mBackoff.restoreState(new FakeSharedPreferences());
+        assertEquals(PulseBackoff.IGNORED_PULSES_THRESHOLD, pulseUntilRefused(mBackoff));
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2026 The BlissRoms Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.custom.ambient.display;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class StartupTrackerTest {
+
+    private long mNow;
+    private StartupTracker mTracker;
+
+    @Before
+    public void setUp() {
+        mNow = 5000;
+        mTracker = new StartupTracker(() -> mNow);
+    }
+
+    @Test
+    public void measuresRegistrationAfterCreate() {
+        mTracker.onArmingChanged();
+        mNow += 20;
+        mTracker.onCreated(true);
+        // Proximity registers once its executor read the settings
+        mNow += 30;
+        mTracker.onRegistered();
+        mNow += 40;
+        mTracker.onRegistered();
+        assertEquals(50, mTracker.getStartupToArmedMs());
+    }
+
+    @Test
+    public void measuresRegistrationDuringCreate() {
+        mTracker.onArmingChanged();
+        mNow += 10;
+        mTracker.onRegistered();
+        mNow += 20;
+        mTracker.onCreated(true);
+        assertEquals(10, mTracker.getStartupToArmedMs());
+    }
+
+    @Test
+    public void displayOnAtCreateIsNotMeasured() {
+        mTracker.onCreated(false);
+        // Screen goes off hours later
+        mNow += 3 * 60 * 60 * 1000;
+        mTracker.onArmingChanged();
+        mTracker.onRegistered();
+        assertEquals(-1, mTracker.getStartupToArmedMs());
+    }
+
+    @Test
+    public void disarmedBeforeRegistrationIsNotMeasured() {
+        mTracker.onArmingChanged();
+        mTracker.onCreated(true);
+        mNow += 10;
+        mTracker.onArmingChanged();
+        mNow += 60 * 1000;
+        mTracker.onArmingChanged();
+        mTracker.onRegistered();
+        assertEquals(-1, mTracker.getStartupToArmedMs());
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2026 The BlissRoms Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.custom.ambient.display;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class TiltStateTest {
+
+    @Test
+    public void reportsOnlyChanges() {
+        TiltState state = new TiltState();
+        assertFalse(state.setInsidePocket(false));
+        assertTrue(state.setInsidePocket(true));
+        assertFalse(state.setInsidePocket(true));
+        assertTrue(state.setInsidePocket(false));
+    }
+
+    @Test
+    public void insidePocketSurvivesRestore() {
+        TiltState state = new TiltState();
+        state.setInsidePocket(true);
+        FakeSharedPreferences prefs = new FakeSharedPreferences();
+        prefs.write(state::save);
+        assertTrue(prefs.getBoolean(TiltState.KEY_INSIDE_POCKET, false));
+
+        TiltState restored = new TiltState();
+        restored.restore(prefs);
+        assertTrue(restored.isInsidePocket());
+    }
+
+    @Test
+    public void emptyStateRestoresOutsidePocket() {
+        TiltState state = new TiltState();
+        state.setInsidePocket(true);
+        state.restore(new FakeSharedPreferences());
+        assertFalse(state.isInsidePocket());
+    }
+}